@@ -1,6 +1,10 @@
 package org.bluo.springmvc.content;
 
 import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONConfig;
+import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.bluo.content.AnnotationConfigApplicationContext;
@@ -10,11 +14,21 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * @author boluo
@@ -22,14 +36,65 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 @Slf4j
 public class DispatcherServlet extends HttpServlet {
+    private static final JSONConfig BATCH_JSON_CONFIG = JSONConfig.create().setIgnoreNullValue(false);
+
     private AnnotationConfigApplicationContext configApplicationContext;
     private ConcurrentHashMap<String, HandleInvocation> handleInvocationMap = new ConcurrentHashMap<>();
+    private StaticResourceHandler staticResourceHandler;
+    private String batchPath;
+    private int batchMaxSize;
+    private long batchMaxBytes;
+    private ExecutorService batchExecutor;
 
     @Override
     public void init() throws ServletException {
         String packagePath = this.getServletConfig().getInitParameter("springPath");
         configApplicationContext = new AnnotationConfigApplicationContext(packagePath);
         initHandlerMapping();
+        initStaticResourceHandler();
+        initBatch();
+    }
+
+    private void initBatch() {
+        batchPath = this.getServletConfig().getInitParameter("batchPath");
+        if (StrUtil.isBlank(batchPath)) {
+            batchPath = "/batch";
+        }
+        batchMaxSize = (int) getLongInitParameter("batchMaxSize", 100);
+        batchMaxBytes = getLongInitParameter("batchMaxBytes", 1024 * 1024);
+        int batchThreads = (int) getLongInitParameter("batchThreads", Runtime.getRuntime().availableProcessors());
+        batchExecutor = Executors.newFixedThreadPool(batchThreads);
+    }
+
+    private void initStaticResourceHandler() throws ServletException {
+        String staticPrefix = this.getServletConfig().getInitParameter("staticPrefix");
+        if (StrUtil.isBlank(staticPrefix)) {
+            return;
+        }
+        // 未配置目录时使用webapp下与前缀同名的目录
+        String staticLocation = this.getServletConfig().getInitParameter("staticLocation");
+        if (StrUtil.isBlank(staticLocation)) {
+            staticLocation = this.getServletContext().getRealPath(staticPrefix);
+        }
+        if (StrUtil.isBlank(staticLocation)) {
+            log.warn("static location not found, prefix: {}", staticPrefix);
+            return;
+        }
+        long cacheSize = getLongInitParameter("staticCacheSize", 16 * 1024 * 1024);
+        long cacheFileSize = getLongInitParameter("staticCacheFileSize", 256 * 1024);
+        // 不配置时 text/* 资源不声明字符集
+        String charset = this.getServletConfig().getInitParameter("staticCharset");
+        try {
+            staticResourceHandler = new StaticResourceHandler(staticPrefix, new File(staticLocation),
+                    cacheSize, cacheFileSize, charset);
+        } catch (IOException e) {
+            throw new ServletException("init static resource handler error", e);
+        }
+    }
+
+    private long getLongInitParameter(String name, long defaultValue) {
+        String value = this.getServletConfig().getInitParameter(name);
+        return StrUtil.isBlank(value) ? defaultValue : Long.parseLong(value.trim());
     }
 
     private void initHandlerMapping() {
@@ -55,28 +120,8 @@ public class DispatcherServlet extends HttpServlet {
         String requestURI = req.getRequestURI();
         HandleInvocation handleInvocation = handleInvocationMap.get(requestURI);
         if (ObjectUtil.isNotNull(handleInvocation)) {
-            Method method = handleInvocation.getMethod();
             try {
-                Class<?>[] parameterTypes = method.getParameterTypes();
-                Object[] params = new Object[parameterTypes.length];
-                int index = 0;
-                for (int i = 0; i < parameterTypes.length; i++) {
-                    if (parameterTypes[i].isAssignableFrom(HttpServletRequest.class)) {
-                        params[i] = req;
-                    } else if (parameterTypes[i].isAssignableFrom(HttpServletResponse.class)) {
-                        params[i] = req;
-                    } else {
-                        String paramName = "param" + index++; // 假设参数名为 param0, param1, ...
-                        String[] parameterValues = req.getParameterValues(paramName);
-                        if (parameterValues != null && parameterValues.length > 0) {
-                            params[i] = convertParameterValue(parameterTypes[i], parameterValues[0]);
-                        } else {
-                            params[i] = getDefaultParameterValue(parameterTypes[i]);
-                        }
-                    }
-                }
-
-                Object invoke = method.invoke(handleInvocation.getController(), params);
+                Object invoke = invokeHandler(handleInvocation, req.getParameterMap(), req, resp);
 
                 // 默认直接json返回
                 if (invoke instanceof String) {
@@ -96,7 +141,15 @@ public class DispatcherServlet extends HttpServlet {
             } catch (Exception e) {
                 log.error("invoke error", e);
             }
-        } else {
+        } else if (requestURI.equals(batchPath)) {
+            if ("POST".equalsIgnoreCase(req.getMethod())) {
+                doBatch(req, resp);
+            } else {
+                resp.setHeader("Allow", "POST");
+                writeError(resp, HttpServletResponse.SC_METHOD_NOT_ALLOWED, "batch only supports POST");
+            }
+        } else if (ObjectUtil.isNull(staticResourceHandler)
+                || !staticResourceHandler.handle(req, resp, requestURI)) {
             resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
             PrintWriter writer = resp.getWriter();
             writer.write("404 not found!!");
@@ -105,6 +158,236 @@ public class DispatcherServlet extends HttpServlet {
         }
     }
 
+    private Object invokeHandler(HandleInvocation handleInvocation, Map<String, String[]> parameterMap,
+                                 HttpServletRequest req, HttpServletResponse resp) throws Exception {
+        Method method = handleInvocation.getMethod();
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        Object[] params = new Object[parameterTypes.length];
+        int index = 0;
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (parameterTypes[i].isAssignableFrom(HttpServletRequest.class)) {
+                params[i] = req;
+            } else if (parameterTypes[i].isAssignableFrom(HttpServletResponse.class)) {
+                params[i] = resp;
+            } else {
+                String paramName = "param" + index++; // 假设参数名为 param0, param1, ...
+                String[] parameterValues = parameterMap.get(paramName);
+                if (parameterValues != null && parameterValues.length > 0) {
+                    params[i] = convertParameterValue(parameterTypes[i], parameterValues[0]);
+                } else {
+                    params[i] = getDefaultParameterValue(parameterTypes[i]);
+                }
+            }
+        }
+        return method.invoke(handleInvocation.getController(), params);
+    }
+
+    /**
+     * 批量调用, 请求体为 [{"path": "/order/test", "params": {"param0": "a"}}, ...]
+     * 按请求顺序返回 [{"path": ..., "status": 200, "body": ...}, ...], 单个失败不影响其他
+     * 带 parallel=true 参数时子请求并行执行
+     * 子请求的 request 和 response 参数都传null, 参数只能通过 params 绑定;
+     * 返回String时与直接调用一致按json处理, 解析不了时作为普通字符串放入body
+     * 单项执行异常只影响该项, 写出失败或被中断时取消尚未完成的子请求
+     */
+    private void doBatch(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        if (req.getContentLengthLong() > batchMaxBytes) {
+            writeError(resp, HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, "batch body exceeds " + batchMaxBytes + " bytes");
+            return;
+        }
+        // json默认utf-8, 客户端没声明字符集时容器会按ISO-8859-1解码
+        if (req.getCharacterEncoding() == null) {
+            req.setCharacterEncoding("UTF-8");
+        }
+        String body = readBody(req.getReader());
+        if (body == null) {
+            writeError(resp, HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, "batch body exceeds " + batchMaxBytes + " bytes");
+            return;
+        }
+        JSONArray subRequests;
+        try {
+            subRequests = JSONUtil.parseArray(body);
+        } catch (Exception e) {
+            writeError(resp, HttpServletResponse.SC_BAD_REQUEST, "batch body must be a json array");
+            return;
+        }
+        if (subRequests.size() > batchMaxSize) {
+            writeError(resp, HttpServletResponse.SC_BAD_REQUEST, "batch size exceeds " + batchMaxSize);
+            return;
+        }
+
+        boolean parallel = Boolean.parseBoolean(req.getParameter("parallel"));
+        List<Future<JSONObject>> futures = new ArrayList<>(subRequests.size());
+        if (parallel) {
+            for (Object subRequest : subRequests) {
+                futures.add(batchExecutor.submit(() -> invokeSubRequest(subRequest)));
+            }
+        }
+
+        // 按顺序边完成边写出, 串行时逐个执行逐个写出
+        resp.setContentType("application/json;charset=utf-8");
+        PrintWriter writer = resp.getWriter();
+        try {
+            writer.write('[');
+            boolean interrupted = false;
+            for (int i = 0; i < subRequests.size(); i++) {
+                Object subRequest = subRequests.get(i);
+                JSONObject result;
+                if (interrupted) {
+                    result = batchResult(subRequestPath(subRequest), HttpServletResponse.SC_SERVICE_UNAVAILABLE, "interrupted");
+                } else if (parallel) {
+                    try {
+                        result = futures.get(i).get();
+                    } catch (InterruptedException e) {
+                        // 不再等待剩余子请求, 取消后剩余项都按503返回
+                        Thread.currentThread().interrupt();
+                        interrupted = true;
+                        cancelAll(futures);
+                        result = batchResult(subRequestPath(subRequest), HttpServletResponse.SC_SERVICE_UNAVAILABLE, "interrupted");
+                    } catch (ExecutionException e) {
+                        result = batchResult(subRequestPath(subRequest), HttpServletResponse.SC_INTERNAL_SERVER_ERROR, String.valueOf(e.getCause()));
+                    }
+                } else {
+                    try {
+                        result = invokeSubRequest(subRequest);
+                    } catch (Exception e) {
+                        log.error("batch invoke error", e);
+                        result = batchResult(subRequestPath(subRequest), HttpServletResponse.SC_INTERNAL_SERVER_ERROR, String.valueOf(e));
+                    }
+                }
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(result.toString());
+                writer.flush();
+                // 客户端断开后不再继续执行
+                if (writer.checkError()) {
+                    return;
+                }
+            }
+            writer.write(']');
+            writer.flush();
+            writer.close();
+        } finally {
+            cancelAll(futures);
+        }
+    }
+
+    /**
+     * 最多读取 batchMaxBytes 个字符, 超出时返回null
+     */
+    private String readBody(Reader reader) throws IOException {
+        StringBuilder body = new StringBuilder();
+        char[] buffer = new char[8192];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            body.append(buffer, 0, read);
+            if (body.length() > batchMaxBytes) {
+                return null;
+            }
+        }
+        return body.toString();
+    }
+
+    private void cancelAll(List<Future<JSONObject>> futures) {
+        for (Future<JSONObject> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    private String subRequestPath(Object subRequest) {
+        return subRequest instanceof JSONObject ? ((JSONObject) subRequest).getStr("path") : null;
+    }
+
+    private JSONObject invokeSubRequest(Object subRequest) {
+        if (!(subRequest instanceof JSONObject)) {
+            return batchResult(null, HttpServletResponse.SC_BAD_REQUEST, "sub request must be a json object");
+        }
+        JSONObject json = (JSONObject) subRequest;
+        String path = json.getStr("path");
+        HandleInvocation handleInvocation = path == null ? null : handleInvocationMap.get(path);
+        if (ObjectUtil.isNull(handleInvocation)) {
+            return batchResult(path, HttpServletResponse.SC_NOT_FOUND, "404 not found!!");
+        }
+
+        Object invoke;
+        try {
+            Object params = json.get("params");
+            if (params != null && !JSONUtil.isNull(params) && !(params instanceof JSONObject)) {
+                return batchResult(path, HttpServletResponse.SC_BAD_REQUEST, "params must be a json object");
+            }
+            Map<String, String[]> parameterMap = toParameterMap((JSONObject) (params instanceof JSONObject ? params : null));
+            // 容器的request不是线程安全的, 子请求也不能直接写响应, 两者都传null
+            invoke = invokeHandler(handleInvocation, parameterMap, null, null);
+        } catch (InvocationTargetException e) {
+            log.error("batch invoke error, path: {}", path, e.getCause());
+            return batchResult(path, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, String.valueOf(e.getCause()));
+        } catch (Exception e) {
+            log.error("batch invoke error, path: {}", path, e);
+            return batchResult(path, HttpServletResponse.SC_BAD_REQUEST, String.valueOf(e));
+        }
+
+        if (invoke instanceof String) {
+            // 与直接调用一致, String按json处理, 解析失败时作为普通字符串
+            String str = (String) invoke;
+            if (JSONUtil.isTypeJSON(str)) {
+                try {
+                    return batchResult(path, HttpServletResponse.SC_OK, JSONUtil.parse(str, BATCH_JSON_CONFIG));
+                } catch (Exception e) {
+                    return batchResult(path, HttpServletResponse.SC_OK, str);
+                }
+            }
+            return batchResult(path, HttpServletResponse.SC_OK, str);
+        }
+        // 与直接调用时 JSONUtil.toJsonStr 一致, 使用默认配置转换, 忽略null字段
+        return batchResult(path, HttpServletResponse.SC_OK, JSONUtil.wrap(invoke, JSONConfig.create()));
+    }
+
+    private Map<String, String[]> toParameterMap(JSONObject params) {
+        Map<String, String[]> parameterMap = new HashMap<>();
+        if (params == null) {
+            return parameterMap;
+        }
+        for (Map.Entry<String, Object> entry : params.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof JSONArray) {
+                JSONArray array = (JSONArray) value;
+                String[] values = new String[array.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = array.getStr(i);
+                }
+                parameterMap.put(entry.getKey(), values);
+            } else if (value != null && !JSONUtil.isNull(value)) {
+                parameterMap.put(entry.getKey(), new String[]{value.toString()});
+            }
+        }
+        return parameterMap;
+    }
+
+    private JSONObject batchResult(String path, int status, Object body) {
+        // 保留null值, 保证每一项都有 path/status/body
+        JSONObject result = new JSONObject(BATCH_JSON_CONFIG);
+        result.set("path", path);
+        result.set("status", status);
+        result.set("body", body);
+        return result;
+    }
+
+    private void writeError(HttpServletResponse resp, int status, String message) throws IOException {
+        resp.setStatus(status);
+        PrintWriter writer = resp.getWriter();
+        writer.write(message);
+        writer.flush();
+        writer.close();
+    }
+
+    @Override
+    public void destroy() {
+        if (ObjectUtil.isNotNull(batchExecutor)) {
+            batchExecutor.shutdown();
+        }
+    }
+
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
         this.doPost(req, resp);
@@ -0,0 +1,41 @@
+package org.bluo.springmvc.content;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.File;
+
+/**
+ * 静态资源元信息, 响应头在加载时预先计算好
+ *
+ * @author boluo
+ * @date 2026/10/19
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StaticResource {
+    private File file;
+    private long length;
+    private long lastModified;
+    private String lastModifiedHeader;
+    private String etag;
+    /**
+     * gzip内容使用单独的强校验ETag
+     */
+    private String gzipEtag;
+    private String contentType;
+    /**
+     * 小文件内容, 大文件为null
+     */
+    private byte[] content;
+    /**
+     * 预压缩内容, 压缩无收益时为null
+     */
+    private byte[] gzipContent;
+
+    public int cacheSize() {
+        return (content == null ? 0 : content.length) + (gzipContent == null ? 0 : gzipContent.length);
+    }
+}
@@ -0,0 +1,367 @@
+package org.bluo.springmvc.content;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.core.util.ZipUtil;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 静态资源处理, 按路径前缀映射到本地目录
+ * 小文件连同gzip内容和响应头缓存在内存中, 大文件分块读取后输出
+ * Servlet API 只暴露 OutputStream, 拿不到 socket 通道, 无法走 sendfile 零拷贝
+ *
+ * @author boluo
+ * @date 2026/10/19
+ */
+public class StaticResourceHandler {
+    private static final int MAX_CACHE_ENTRIES = 1024;
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final String prefix;
+    private final File location;
+    private final long maxCacheBytes;
+    private final long maxCacheFileSize;
+    /**
+     * text/* 资源的字符集, 为空时不在 Content-Type 中声明
+     */
+    private final String charset;
+    private long cacheBytes = 0;
+    private final LinkedHashMap<String, StaticResource> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    public StaticResourceHandler(String prefix, File location, long maxCacheBytes, long maxCacheFileSize,
+                                 String charset) throws IOException {
+        this.prefix = prefix.endsWith("/") ? prefix : prefix + "/";
+        this.location = location.getCanonicalFile();
+        this.maxCacheBytes = maxCacheBytes;
+        this.maxCacheFileSize = maxCacheFileSize;
+        this.charset = charset;
+    }
+
+    /**
+     * @return 请求是否已被处理
+     */
+    public boolean handle(HttpServletRequest req, HttpServletResponse resp, String requestURI) throws IOException {
+        String path = decodePath(requestURI);
+        if (path == null || !path.startsWith(prefix)) {
+            return false;
+        }
+        File file = resolve(path.substring(prefix.length()));
+        if (file == null) {
+            return false;
+        }
+        StaticResource resource = getResource(path, file);
+
+        // 区间请求总是按原始内容响应, 其余情况客户端接受时返回gzip内容
+        String range = req.getHeader("Range");
+        boolean rangeRequested = StrUtil.isNotBlank(range) && isIfRangeMatched(req, resource);
+        boolean gzip = !rangeRequested && resource.getGzipContent() != null && acceptsGzip(req);
+
+        resp.setHeader("ETag", gzip ? resource.getGzipEtag() : resource.getEtag());
+        resp.setHeader("Last-Modified", resource.getLastModifiedHeader());
+        resp.setHeader("Accept-Ranges", "bytes");
+        if (resource.getGzipContent() != null) {
+            resp.setHeader("Vary", "Accept-Encoding");
+        }
+        if (isNotModified(req, resource)) {
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+        resp.setContentType(resource.getContentType());
+
+        if (rangeRequested) {
+            long[] r = parseRange(range, resource.getLength());
+            if (r == null) {
+                resp.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                resp.setHeader("Content-Range", "bytes */" + resource.getLength());
+                return true;
+            }
+            if (r.length == 2) {
+                long count = r[1] - r[0] + 1;
+                resp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                resp.setHeader("Content-Range", "bytes " + r[0] + "-" + r[1] + "/" + resource.getLength());
+                resp.setContentLengthLong(count);
+                write(req, resp, resource, r[0], count);
+                return true;
+            }
+        }
+
+        if (gzip) {
+            resp.setHeader("Content-Encoding", "gzip");
+            resp.setContentLength(resource.getGzipContent().length);
+            if (!isHead(req)) {
+                resp.getOutputStream().write(resource.getGzipContent());
+            }
+            return true;
+        }
+        resp.setContentLengthLong(resource.getLength());
+        write(req, resp, resource, 0, resource.getLength());
+        return true;
+    }
+
+    /**
+     * 去掉 ;jsessionid=... 这类路径参数后做URL解码, '+' 在路径中不表示空格
+     */
+    private String decodePath(String requestURI) {
+        String path = requestURI.replaceAll(";[^/]*", "");
+        try {
+            String decoded = URLDecoder.decode(path.replace("+", "%2B"), "UTF-8");
+            return decoded.indexOf('\0') == -1 ? decoded : null;
+        } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private File resolve(String relativePath) throws IOException {
+        if (StrUtil.isBlank(relativePath)) {
+            return null;
+        }
+        File file = new File(location, relativePath).getCanonicalFile();
+        // 防止 ../ 越过资源目录
+        if (!file.getPath().startsWith(location.getPath() + File.separator) || !file.isFile()) {
+            return null;
+        }
+        // 资源目录指向webapp根目录时, 不能暴露 WEB-INF 和 META-INF
+        String firstSegment = StrUtil.subBefore(file.getPath().substring(location.getPath().length() + 1), File.separator, false);
+        if ("WEB-INF".equalsIgnoreCase(firstSegment) || "META-INF".equalsIgnoreCase(firstSegment)) {
+            return null;
+        }
+        return file;
+    }
+
+    private StaticResource getResource(String key, File file) {
+        long length = file.length();
+        long lastModified = file.lastModified();
+        synchronized (cache) {
+            StaticResource cached = cache.get(key);
+            if (cached != null && cached.getLength() == length && cached.getLastModified() == lastModified) {
+                return cached;
+            }
+        }
+        StaticResource resource = load(file, length, lastModified);
+        synchronized (cache) {
+            StaticResource old = cache.put(key, resource);
+            if (old != null) {
+                cacheBytes -= old.cacheSize();
+            }
+            cacheBytes += resource.cacheSize();
+            evict();
+        }
+        return resource;
+    }
+
+    private StaticResource load(File file, long length, long lastModified) {
+        String contentType = FileUtil.getMimeType(file.getPath());
+        if (contentType == null) {
+            contentType = "application/octet-stream";
+        } else if (contentType.startsWith("text/") && StrUtil.isNotBlank(charset)) {
+            contentType = contentType + ";charset=" + charset;
+        }
+        String lastModifiedHeader = DateTimeFormatter.RFC_1123_DATE_TIME
+                .format(Instant.ofEpochMilli(lastModified).atZone(ZoneOffset.UTC));
+        String tag = Long.toHexString(length) + "-" + Long.toHexString(lastModified);
+        String etag = "\"" + tag + "\"";
+        String gzipEtag = "\"" + tag + "-gz\"";
+
+        byte[] content = null;
+        byte[] gzipContent = null;
+        if (length <= maxCacheFileSize) {
+            content = FileUtil.readBytes(file);
+            if (content.length != length) {
+                // 读取期间文件被修改, 本次不缓存内容
+                content = null;
+            } else if (isCompressible(contentType)) {
+                gzipContent = ZipUtil.gzip(content);
+                // 压缩收益太小就不保留
+                if (gzipContent.length >= content.length * 9L / 10) {
+                    gzipContent = null;
+                }
+            }
+        }
+        return new StaticResource(file, length, lastModified, lastModifiedHeader, etag, gzipEtag, contentType, content, gzipContent);
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, StaticResource>> iterator = cache.entrySet().iterator();
+        while (iterator.hasNext() && (cacheBytes > maxCacheBytes || cache.size() > MAX_CACHE_ENTRIES)) {
+            StaticResource eldest = iterator.next().getValue();
+            cacheBytes -= eldest.cacheSize();
+            iterator.remove();
+        }
+    }
+
+    private void write(HttpServletRequest req, HttpServletResponse resp, StaticResource resource,
+                       long position, long count) throws IOException {
+        if (isHead(req) || count == 0) {
+            return;
+        }
+        OutputStream out = resp.getOutputStream();
+        byte[] content = resource.getContent();
+        if (content != null) {
+            out.write(content, (int) position, (int) count);
+            return;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(resource.getFile(), "r")) {
+            file.seek(position);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long remaining = count;
+            while (remaining > 0) {
+                int read = file.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read == -1) {
+                    break;
+                }
+                out.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+    }
+
+    private boolean isNotModified(HttpServletRequest req, StaticResource resource) {
+        if (!"GET".equalsIgnoreCase(req.getMethod()) && !isHead(req)) {
+            return false;
+        }
+        String ifNoneMatch = req.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            if ("*".equals(ifNoneMatch.trim())) {
+                return true;
+            }
+            // If-None-Match 使用弱比较, 代理压缩后会把ETag改成 W/"..."; 原始和gzip两种ETag都认
+            for (String etag : StrUtil.split(ifNoneMatch, ',', true, true)) {
+                String opaqueTag = StrUtil.removePrefix(etag, "W/");
+                if (opaqueTag.equals(resource.getEtag()) || opaqueTag.equals(resource.getGzipEtag())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = getDateHeader(req, "If-Modified-Since");
+        return ifModifiedSince != -1 && resource.getLastModified() / 1000 <= ifModifiedSince / 1000;
+    }
+
+    private boolean isIfRangeMatched(HttpServletRequest req, StaticResource resource) {
+        String ifRange = req.getHeader("If-Range");
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(resource.getEtag());
+        }
+        long date = getDateHeader(req, "If-Range");
+        return date != -1 && resource.getLastModified() / 1000 <= date / 1000;
+    }
+
+    /**
+     * 只支持单个区间, 多区间或格式非法时返回空数组, 按完整内容响应
+     *
+     * @return [start, end], 起始位置超出文件长度时返回null
+     */
+    private long[] parseRange(String range, long length) {
+        if (!range.startsWith("bytes=") || range.indexOf(',') != -1) {
+            return new long[0];
+        }
+        String spec = range.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash == -1) {
+            return new long[0];
+        }
+        try {
+            String startStr = spec.substring(0, dash).trim();
+            String endStr = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (startStr.isEmpty()) {
+                // bytes=-500 表示最后500字节
+                long suffix = Long.parseLong(endStr);
+                if (suffix <= 0 || length == 0) {
+                    return null;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(startStr);
+                end = endStr.isEmpty() ? length - 1 : Long.parseLong(endStr);
+                // bytes=5-3 这类非法区间忽略
+                if (start < 0 || end < start) {
+                    return new long[0];
+                }
+                if (start >= length) {
+                    return null;
+                }
+                end = Math.min(end, length - 1);
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    private long getDateHeader(HttpServletRequest req, String name) {
+        try {
+            return req.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 解析 Accept-Encoding 的q值, gzip;q=0 表示明确拒绝
+     */
+    private boolean acceptsGzip(HttpServletRequest req) {
+        String acceptEncoding = req.getHeader("Accept-Encoding");
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double anyQuality = null;
+        for (String coding : StrUtil.split(acceptEncoding, ',', true, true)) {
+            List<String> parts = StrUtil.split(coding, ';', true, true);
+            double quality = 1;
+            for (int i = 1; i < parts.size(); i++) {
+                String param = parts.get(i);
+                if (param.startsWith("q=") || param.startsWith("Q=")) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            String name = parts.isEmpty() ? "" : parts.get(0);
+            if ("gzip".equalsIgnoreCase(name) || "x-gzip".equalsIgnoreCase(name)) {
+                gzipQuality = quality;
+            } else if ("*".equals(name)) {
+                anyQuality = quality;
+            }
+        }
+        if (gzipQuality != null) {
+            return gzipQuality > 0;
+        }
+        return anyQuality != null && anyQuality > 0;
+    }
+
+    private boolean isHead(HttpServletRequest req) {
+        return "HEAD".equalsIgnoreCase(req.getMethod());
+    }
+
+    private boolean isCompressible(String contentType) {
+        return contentType.startsWith("text/")
+                || contentType.contains("json")
+                || contentType.contains("javascript")
+                || contentType.contains("xml")
+                || contentType.contains("svg");
+    }
+}